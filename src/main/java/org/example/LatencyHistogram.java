@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed millisecond buckets.
+ *
+ * Worker threads call {@link #record(long)} without any locking; readers get
+ * percentile estimates from the bucket upper bounds, which is accurate enough
+ * for progress reporting. Percentiles falling in the unbounded last bucket are
+ * reported as the largest observed value.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds (inclusive) of each bucket in milliseconds; the last bucket is unbounded
+    static final long[] BUCKET_BOUNDS_MS = {
+            1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMillis = new LongAdder();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * Record a single observation
+     * @param millis observed latency in milliseconds
+     */
+    public void record(long millis) {
+        buckets.incrementAndGet(bucketIndex(millis));
+        count.increment();
+        sumMillis.add(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumMillis() {
+        return sumMillis.sum();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * Estimate the given percentile from the bucket counts
+     * @param percentile value between 0 and 1 (e.g., 0.95)
+     * @return upper bound of the bucket holding the percentile, the largest observed value
+     *         if that bucket is unbounded, or 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = snapshotBuckets();
+        long total = 0;
+        for (long bucketCount : snapshot) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : getMaxMillis();
+            }
+        }
+        return getMaxMillis();
+    }
+
+    private long[] snapshotBuckets() {
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    private static int bucketIndex(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Rewrites absolute references to the live site so the browser keeps talking to
+ * the local recording proxy or replay server.
+ *
+ * Recordings store responses as received from the live site; both the proxy and
+ * the replay server rewrite them on the way out, because each listens on its own port.
+ * Requests forwarded to the live site are rewritten the other way, so origin and
+ * CSRF checks see the live origin.
+ */
+final class OriginRewriter {
+
+    // Response headers that may name the live origin and would otherwise block or misdirect the local page
+    private static final Set<String> ORIGIN_HEADERS = Set.of(
+            "location", "content-security-policy", "content-security-policy-report-only",
+            "access-control-allow-origin", "link", "refresh"
+    );
+
+    // Request headers the browser fills with the local origin
+    private static final Set<String> REQUEST_ORIGIN_HEADERS = Set.of("origin", "referer");
+
+    private OriginRewriter() {
+    }
+
+    /**
+     * Rewrite a response header value
+     * @param name lower case header name
+     */
+    static String header(String name, String value, String upstream, String local) {
+        if (ORIGIN_HEADERS.contains(name)) {
+            return value.replace(upstream, local);
+        }
+        if ("set-cookie".equals(name)) {
+            // Cookies scoped to the live domain would not be sent to localhost. Secure is kept:
+            // browsers accept it on http://localhost and reject SameSite=None cookies without it
+            return value.replaceAll("(?i);\\s*domain=[^;]*", "");
+        }
+        return value;
+    }
+
+    /**
+     * Rewrite a request header value before it is forwarded to the live site
+     * @param name lower case header name
+     */
+    static String requestHeader(String name, String value, String upstream, String local) {
+        if (REQUEST_ORIGIN_HEADERS.contains(name)) {
+            return value.replace(local, upstream);
+        }
+        return value;
+    }
+
+    /**
+     * Rewrite absolute URLs in textual bodies (HTML, CSS, JavaScript, JSON, XML); other bodies are returned unchanged
+     * @param contentType response Content-Type, may be null
+     */
+    static byte[] body(String contentType, byte[] body, String upstream, String local) {
+        if (contentType == null || body.length == 0 || !isText(contentType.toLowerCase(Locale.ROOT))) {
+            return body;
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        String rewritten = text.replace(upstream, local)
+                .replace(upstream.replace("/", "\\/"), local.replace("/", "\\/"));
+        return rewritten.equals(text) ? body : rewritten.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isText(String contentType) {
+        return contentType.startsWith("text/") || contentType.contains("javascript")
+                || contentType.contains("json") || contentType.contains("xml");
+    }
+}
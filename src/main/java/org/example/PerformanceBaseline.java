@@ -0,0 +1,113 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Throughput and step latency figures of a sweep run, stored as a properties file so
+ * later runs against the same recording can be compared with it.
+ *
+ * Keys:
+ * - pointsPerSecond   processed grid points per second
+ * - step.NAME.mean    mean step latency in milliseconds
+ *
+ * Latencies use the exact mean rather than histogram percentiles, which are
+ * bucket bounds and too coarse to compare against a relative threshold.
+ */
+public class PerformanceBaseline {
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceBaseline.class.getName());
+
+    private static final String POINTS_PER_SECOND = "pointsPerSecond";
+    private static final String STEP_PREFIX = "step.";
+    private static final String MEAN_SUFFIX = ".mean";
+
+    private final Properties values;
+
+    private PerformanceBaseline(Properties values) {
+        this.values = values;
+    }
+
+    /**
+     * Take the figures of a finished sweep
+     * @throws IllegalStateException if the sweep has failed or unprocessed grid points
+     */
+    public static PerformanceBaseline from(SweepMetrics metrics) {
+        if (metrics.getFailed() > 0 || metrics.getRemaining() > 0 || metrics.getCompleted() == 0) {
+            throw new IllegalStateException("Sweep is incomplete (" + metrics.getCompleted() + " completed, "
+                    + metrics.getFailed() + " failed, " + metrics.getRemaining() + " remaining)");
+        }
+        Properties values = new Properties();
+        values.setProperty(POINTS_PER_SECOND, String.valueOf(metrics.getPointsPerSecond()));
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getStepLatencies().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() > 0) {
+                double mean = histogram.getSumMillis() / (double) histogram.getCount();
+                values.setProperty(STEP_PREFIX + entry.getKey() + MEAN_SUFFIX, String.valueOf(mean));
+            }
+        }
+        return new PerformanceBaseline(values);
+    }
+
+    public static PerformanceBaseline load(Path file) throws IOException {
+        Properties values = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            values.load(in);
+        }
+        return new PerformanceBaseline(values);
+    }
+
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            values.store(out, "Sweep performance baseline");
+        }
+        LOGGER.info("Performance baseline saved to " + file.toAbsolutePath());
+    }
+
+    /**
+     * Compare this run with a baseline
+     * @param baseline stored baseline
+     * @param threshold allowed relative regression (e.g., 0.1 for 10%)
+     * @return description of each regression over the threshold, empty if none
+     */
+    public List<String> findRegressions(PerformanceBaseline baseline, double threshold) {
+        List<String> regressions = new ArrayList<>();
+
+        double baselineRate = baseline.get(POINTS_PER_SECOND);
+        double currentRate = get(POINTS_PER_SECOND);
+        if (baselineRate <= 0) {
+            regressions.add("baseline has no throughput figure; delete it and record a new one");
+        } else if (currentRate < baselineRate * (1 - threshold)) {
+            regressions.add(String.format(Locale.ROOT, "throughput dropped from %.3f to %.3f points/s", baselineRate, currentRate));
+        }
+
+        for (String key : baseline.values.stringPropertyNames()) {
+            if (!key.startsWith(STEP_PREFIX)) {
+                continue;
+            }
+            double baselineLatency = baseline.get(key);
+            double currentLatency = get(key);
+            if (baselineLatency > 0 && currentLatency > baselineLatency * (1 + threshold)) {
+                regressions.add(String.format(Locale.ROOT, "%s rose from %.1fms to %.1fms", key, baselineLatency, currentLatency));
+            }
+        }
+        return regressions;
+    }
+
+    private double get(String key) {
+        String value = values.getProperty(key);
+        return value != null ? Double.parseDouble(value) : 0;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A session recorded by {@link SessionRecorder}, loaded into memory for replay.
+ */
+public class RecordedSession {
+
+    private final String upstream;
+    private final Map<String, List<Exchange>> exchanges;
+    private final int size;
+
+    private RecordedSession(String upstream, Map<String, List<Exchange>> exchanges, int size) {
+        this.upstream = upstream;
+        this.exchanges = exchanges;
+        this.size = size;
+    }
+
+    /**
+     * One recorded response
+     */
+    public static class Exchange {
+        final int status;
+        final List<String[]> headers;
+        final byte[] body;
+
+        Exchange(int status, List<String[]> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Response headers as [name, value] pairs in recorded order
+         */
+        public List<String[]> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * Load a recorded session from disk
+     * @param directory directory written by {@link SessionRecorder}
+     */
+    public static RecordedSession load(Path directory) throws IOException {
+        Path bodies = directory.resolve(SessionRecorder.BODIES_DIR);
+        String upstream = Files.readString(directory.resolve(SessionRecorder.UPSTREAM_FILE), StandardCharsets.UTF_8).trim();
+        Map<String, List<Exchange>> exchanges = new HashMap<>();
+        int size = 0;
+
+        for (String line : Files.readAllLines(directory.resolve(SessionRecorder.INDEX_FILE), StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length != 5) {
+                throw new IOException("Malformed line in " + SessionRecorder.INDEX_FILE + ": " + line);
+            }
+            String name = fields[0];
+
+            List<String[]> headers = new ArrayList<>();
+            for (String headerLine : Files.readAllLines(bodies.resolve(name + ".headers"), StandardCharsets.UTF_8)) {
+                int separator = headerLine.indexOf(": ");
+                if (separator > 0) {
+                    headers.add(new String[]{headerLine.substring(0, separator), headerLine.substring(separator + 2)});
+                }
+            }
+            byte[] body = Files.readAllBytes(bodies.resolve(name + ".body"));
+
+            exchanges.computeIfAbsent(key(fields[1], fields[2], fields[3]), k -> new ArrayList<>())
+                    .add(new Exchange(Integer.parseInt(fields[4]), headers, body));
+            size++;
+        }
+        return new RecordedSession(upstream, exchanges, size);
+    }
+
+    /**
+     * Recorded responses for a request, in recorded order
+     * @param method request method
+     * @param target request path including the query string
+     * @param requestBody request body; must match the recorded payload exactly
+     * @return matching exchanges, empty if the request was never recorded
+     */
+    public List<Exchange> find(String method, String target, byte[] requestBody) {
+        return exchanges.getOrDefault(key(method, target, SessionRecorder.bodyHash(requestBody)), Collections.emptyList());
+    }
+
+    /**
+     * Base URL of the live site the session was recorded from
+     */
+    public String getUpstream() {
+        return upstream;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String key(String method, String target, String bodyHash) {
+        return method.toUpperCase() + ' ' + target + ' ' + bodyHash;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Reverse proxy that forwards browser traffic to the live site and records every exchange.
+ *
+ * Point the browser at {@link #getBaseUrl()} instead of the live site. Absolute URLs
+ * of the live site in redirects, cookies, CSP and CORS headers and textual bodies
+ * are rewritten to the proxy so the page keeps sending its traffic through it;
+ * Origin and Referer are rewritten back to the live site on forwarded requests. Requests to other origins
+ * are not seen by the proxy; the sweep reports them (see {@code stockmock.record}).
+ */
+public class RecordingProxy implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(RecordingProxy.class.getName());
+
+    // Headers managed by the HTTP stack on either side of the proxy
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "host", "connection", "content-length", "expect", "upgrade", "keep-alive",
+            "transfer-encoding", "accept-encoding", "content-encoding", "date"
+    );
+
+    private final String upstream;
+    private final SessionRecorder recorder;
+    private final HttpClient client;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private RecordingProxy(String upstream, SessionRecorder recorder, HttpServer server, ExecutorService executor) {
+        this.upstream = stripTrailingSlash(upstream);
+        this.recorder = recorder;
+        this.server = server;
+        this.executor = executor;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Start a proxy on localhost
+     * @param upstream base URL of the live site (e.g., https://www.stockmock.in)
+     * @param recorder recorder receiving each exchange
+     * @param port port to bind; 0 picks a free port
+     */
+    public static RecordingProxy start(String upstream, SessionRecorder recorder, int port) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "recording-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RecordingProxy proxy = new RecordingProxy(upstream, recorder, httpServer, executor);
+
+        httpServer.createContext("/", proxy::forward);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        LOGGER.info("Recording proxy for " + upstream + " listening at " + proxy.getBaseUrl());
+        return proxy;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOGGER.info("Recording proxy stopped");
+    }
+
+    private void forward(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String target = exchange.getRequestURI().getRawPath()
+                    + (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery() : "");
+            String method = exchange.getRequestMethod();
+
+            byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upstream + target))
+                    .method(method, requestBody.length > 0
+                            ? HttpRequest.BodyPublishers.ofByteArray(requestBody)
+                            : HttpRequest.BodyPublishers.noBody());
+            for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+                String name = header.getKey().toLowerCase(Locale.ROOT);
+                if (SKIPPED_HEADERS.contains(name)) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    try {
+                        request.header(header.getKey(), OriginRewriter.requestHeader(name, value, upstream, getBaseUrl()));
+                    } catch (IllegalArgumentException e) {
+                        // Restricted header, let the client set it
+                    }
+                }
+            }
+
+            HttpResponse<byte[]> response;
+            try {
+                response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            } catch (IOException e) {
+                LOGGER.warning("Upstream request failed for " + method + " " + target + ": " + e.getMessage());
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                String name = header.getKey().toLowerCase(Locale.ROOT);
+                if (SKIPPED_HEADERS.contains(name) || name.startsWith(":")) {
+                    continue;
+                }
+                headers.put(header.getKey(), header.getValue());
+            }
+            recorder.recordExchange(method, target, requestBody, response.statusCode(), headers, response.body());
+
+            headers.forEach((name, values) -> exchange.getResponseHeaders().put(name, values.stream()
+                    .map(value -> OriginRewriter.header(name.toLowerCase(Locale.ROOT), value, upstream, getBaseUrl()))
+                    .collect(Collectors.toList())));
+            byte[] body = OriginRewriter.body(response.headers().firstValue("content-type").orElse(null),
+                    response.body(), upstream, getBaseUrl());
+            exchange.sendResponseHeaders(response.statusCode(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    static String stripTrailingSlash(String url) {
+        return url.replaceAll("/+$", "");
+    }
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Serves a {@link RecordedSession} over HTTP so a sweep can run offline and repeatably.
+ *
+ * Absolute URLs of the recorded live site are rewritten to this server, the same
+ * way {@link RecordingProxy} does while recording.
+ *
+ * Requests are matched on method, path including the query string and a hash of
+ * the request body. When the same request was recorded several times the
+ * responses are served in recorded order. Requests that were never recorded, or
+ * that outnumber their recordings, get a 404 and are counted in
+ * {@link #getUnmatchedRequests()} rather than being served a stale response.
+ *
+ * Every response is delayed by the configured latency plus a uniformly
+ * distributed jitter. The jitter is derived from the seed, the request and how
+ * often that request has been seen, so with the same seed a given request always
+ * gets the same delay regardless of which server thread handles it.
+ */
+public class ReplayServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplayServer.class.getName());
+
+    private final RecordedSession session;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final long seed;
+    private final Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+    private final AtomicInteger unmatchedRequests = new AtomicInteger();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ReplayServer(RecordedSession session, long latencyMillis, long jitterMillis, long seed,
+                         HttpServer server, ExecutorService executor) {
+        this.session = session;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.seed = seed;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Start serving a recorded session on localhost
+     * @param session recorded session to serve
+     * @param port port to bind; 0 picks a free port
+     * @param latencyMillis fixed delay added to every response
+     * @param jitterMillis maximum random delay added on top of the fixed latency
+     * @param seed seed for the jitter
+     */
+    public static ReplayServer start(RecordedSession session, int port, long latencyMillis, long jitterMillis, long seed) throws IOException {
+        if (latencyMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("latency and jitter must be >= 0");
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "replay-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ReplayServer replayServer = new ReplayServer(session, latencyMillis, jitterMillis, seed, httpServer, executor);
+
+        httpServer.createContext("/", replayServer::serve);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        LOGGER.info("Replaying " + session.size() + " recorded exchanges at " + replayServer.getBaseUrl()
+                + " (latency " + latencyMillis + "ms, jitter " + jitterMillis + "ms)");
+        return replayServer;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Number of requests that had no recorded response left
+     */
+    public int getUnmatchedRequests() {
+        return unmatchedRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOGGER.info("Replay server stopped");
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+
+            String method = exchange.getRequestMethod();
+            String target = exchange.getRequestURI().getRawPath()
+                    + (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery() : "");
+            List<RecordedSession.Exchange> recorded = session.find(method, target, requestBody);
+            String key = method + ' ' + target + ' ' + SessionRecorder.bodyHash(requestBody);
+            int position = positions.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+
+            sleep(delayMillis(latencyMillis, jitterMillis, seed, key, position));
+            if (position >= recorded.size()) {
+                unmatchedRequests.incrementAndGet();
+                LOGGER.warning((recorded.isEmpty() ? "No recorded exchange for " : "Recording exhausted after "
+                        + recorded.size() + " responses for ") + method + " " + target);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            RecordedSession.Exchange response = recorded.get(position);
+
+            String upstream = RecordingProxy.stripTrailingSlash(session.getUpstream());
+            String contentType = null;
+            for (String[] header : response.getHeaders()) {
+                String name = header[0].toLowerCase(Locale.ROOT);
+                if ("content-type".equals(name)) {
+                    contentType = header[1];
+                }
+                exchange.getResponseHeaders().add(header[0], OriginRewriter.header(name, header[1], upstream, getBaseUrl()));
+            }
+            byte[] body = OriginRewriter.body(contentType, response.getBody(), upstream, getBaseUrl());
+            exchange.sendResponseHeaders(response.getStatus(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delay for the n-th occurrence of a request
+     * @param key request method, target and body hash
+     * @param position how many times the request was seen before
+     */
+    static long delayMillis(long latencyMillis, long jitterMillis, long seed, String key, int position) {
+        if (jitterMillis == 0) {
+            return latencyMillis;
+        }
+        long requestSeed = (seed * 31 + key.hashCode()) * 31 + position;
+        return latencyMillis + new SplittableRandom(requestSeed).nextLong(jitterMillis + 1);
+    }
+
+    private static void sleep(long millis) {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
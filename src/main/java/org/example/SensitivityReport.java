@@ -0,0 +1,249 @@
+package org.example;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Renders a {@link SweepAnalytics.Snapshot} as a standalone HTML report and a PNG heatmap.
+ *
+ * Heatmap cells are coloured red for losses and green for profits, scaled by the
+ * largest absolute mean profit in the grid; grey cells have no result.
+ */
+public class SensitivityReport {
+
+    private static final Logger LOGGER = Logger.getLogger(SensitivityReport.class.getName());
+
+    private static final int PNG_CELL_SIZE = 6;
+    private static final int PNG_MARGIN_LEFT = 70;
+    private static final int PNG_MARGIN_TOP = 30;
+    private static final int PNG_MARGIN_BOTTOM = 55;
+    private static final int PNG_LEGEND_WIDTH = 120;
+    private static final int PNG_LEGEND_BAR_WIDTH = 16;
+    private static final int TICK_LENGTH = 4;
+
+    // Preferred tick spacing in grid points, and the minimum spacing in pixels so labels do not overlap
+    private static final int SL_TICK_STEP = 10;
+    private static final int ENTRY_TICK_STEP = 15;
+    private static final int MIN_SL_TICK_PIXELS = 14;
+    private static final int MIN_ENTRY_TICK_PIXELS = 40;
+    private static final int HTML_ENTRY_TICK_STEP = 15;
+    private static final int TOP_ROBUST_POINTS = 20;
+    private static final Color EMPTY_CELL = new Color(0xDDDDDD);
+
+    private final SweepAnalytics.Snapshot snapshot;
+    private final double colourScale;
+
+    public SensitivityReport(SweepAnalytics.Snapshot snapshot) {
+        this.snapshot = snapshot;
+        double maxAbs = 0;
+        for (int s = 0; s < snapshot.getSlCount(); s++) {
+            for (int e = 0; e < snapshot.getEntryCount(); e++) {
+                double profit = snapshot.meanProfit(s, e);
+                if (!Double.isNaN(profit)) {
+                    maxAbs = Math.max(maxAbs, Math.abs(profit));
+                }
+            }
+        }
+        this.colourScale = maxAbs;
+    }
+
+    /**
+     * Write the heatmap as a PNG with one row per SL % and one column per entry time,
+     * with labelled axes and a colour scale
+     */
+    public void writeHeatmapPng(Path file) throws IOException {
+        int gridWidth = snapshot.getEntryCount() * PNG_CELL_SIZE;
+        int gridHeight = snapshot.getSlCount() * PNG_CELL_SIZE;
+        int plotHeight = Math.max(gridHeight, 120);
+        BufferedImage image = new BufferedImage(PNG_MARGIN_LEFT + gridWidth + PNG_LEGEND_WIDTH,
+                PNG_MARGIN_TOP + plotHeight + PNG_MARGIN_BOTTOM, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+            FontMetrics metrics = g.getFontMetrics();
+
+            // Cells
+            for (int s = 0; s < snapshot.getSlCount(); s++) {
+                for (int e = 0; e < snapshot.getEntryCount(); e++) {
+                    g.setColor(colour(snapshot.meanProfit(s, e)));
+                    g.fillRect(PNG_MARGIN_LEFT + e * PNG_CELL_SIZE, PNG_MARGIN_TOP + s * PNG_CELL_SIZE, PNG_CELL_SIZE, PNG_CELL_SIZE);
+                }
+            }
+            g.setColor(Color.BLACK);
+            g.drawRect(PNG_MARGIN_LEFT - 1, PNG_MARGIN_TOP - 1, gridWidth + 1, gridHeight + 1);
+            g.drawString("Mean overall profit", PNG_MARGIN_LEFT, PNG_MARGIN_TOP - 12);
+
+            // SL % axis
+            for (int s = 0; s < snapshot.getSlCount(); s += tickStep(snapshot.getSlCount(), SL_TICK_STEP, MIN_SL_TICK_PIXELS)) {
+                int y = PNG_MARGIN_TOP + s * PNG_CELL_SIZE + PNG_CELL_SIZE / 2;
+                String label = snapshot.slPercentAt(s) + "%";
+                g.drawLine(PNG_MARGIN_LEFT - 1 - TICK_LENGTH, y, PNG_MARGIN_LEFT - 1, y);
+                g.drawString(label, PNG_MARGIN_LEFT - 3 - TICK_LENGTH - metrics.stringWidth(label), y + metrics.getAscent() / 2 - 1);
+            }
+            drawRotated(g, "SL %", 14, PNG_MARGIN_TOP + gridHeight / 2 + metrics.stringWidth("SL %") / 2);
+
+            // Entry time axis
+            int axisY = PNG_MARGIN_TOP + gridHeight;
+            for (int e = 0; e < snapshot.getEntryCount(); e += tickStep(snapshot.getEntryCount(), ENTRY_TICK_STEP, MIN_ENTRY_TICK_PIXELS)) {
+                int x = PNG_MARGIN_LEFT + e * PNG_CELL_SIZE + PNG_CELL_SIZE / 2;
+                String label = SweepAnalytics.formatMinute(snapshot.entryMinuteAt(e));
+                g.drawLine(x, axisY, x, axisY + TICK_LENGTH);
+                g.drawString(label, x - metrics.stringWidth(label) / 2, axisY + TICK_LENGTH + metrics.getAscent() + 2);
+            }
+            String entryTitle = "Entry time";
+            g.drawString(entryTitle, PNG_MARGIN_LEFT + (gridWidth - metrics.stringWidth(entryTitle)) / 2,
+                    axisY + TICK_LENGTH + 2 * metrics.getHeight() + 6);
+
+            drawLegend(g, metrics, PNG_MARGIN_LEFT + gridWidth + 20, PNG_MARGIN_TOP, plotHeight);
+        } finally {
+            g.dispose();
+        }
+        ImageIO.write(image, "png", file.toFile());
+        LOGGER.info("Heatmap written to " + file.toAbsolutePath());
+    }
+
+    /**
+     * Vertical colour bar from the largest profit (top) to the largest loss (bottom)
+     */
+    private void drawLegend(Graphics2D g, FontMetrics metrics, int x, int y, int height) {
+        for (int row = 0; row < height; row++) {
+            double profit = colourScale * (1 - 2.0 * row / (height - 1));
+            g.setColor(colour(profit));
+            g.fillRect(x, y + row, PNG_LEGEND_BAR_WIDTH, 1);
+        }
+        g.setColor(Color.BLACK);
+        g.drawRect(x, y, PNG_LEGEND_BAR_WIDTH, height - 1);
+
+        int labelX = x + PNG_LEGEND_BAR_WIDTH + TICK_LENGTH + 2;
+        int[] offsets = {0, (height - 1) / 2, height - 1};
+        double[] values = {colourScale, 0, -colourScale};
+        for (int i = 0; i < offsets.length; i++) {
+            int tickY = y + offsets[i];
+            g.drawLine(x + PNG_LEGEND_BAR_WIDTH, tickY, x + PNG_LEGEND_BAR_WIDTH + TICK_LENGTH, tickY);
+            g.drawString(format(values[i]), labelX, tickY + metrics.getAscent() / 2 - 1);
+        }
+        g.setColor(EMPTY_CELL);
+        g.fillRect(x, y + height + 10, PNG_LEGEND_BAR_WIDTH, PNG_LEGEND_BAR_WIDTH);
+        g.setColor(Color.BLACK);
+        g.drawString("no result", labelX, y + height + 10 + PNG_LEGEND_BAR_WIDTH / 2 + metrics.getAscent() / 2 - 1);
+    }
+
+    private static void drawRotated(Graphics2D g, String text, int x, int y) {
+        AffineTransform original = g.getTransform();
+        g.rotate(-Math.PI / 2, x, y);
+        g.drawString(text, x, y);
+        g.setTransform(original);
+    }
+
+    /**
+     * Spacing between labelled ticks: every grid point for small axes, otherwise the
+     * preferred step, widened until labels are at least minPixels apart
+     */
+    private static int tickStep(int count, int preferredStep, int minPixels) {
+        int step = count <= preferredStep ? 1 : preferredStep;
+        int minStep = (minPixels + PNG_CELL_SIZE - 1) / PNG_CELL_SIZE;
+        return Math.max(step, minStep);
+    }
+
+    /**
+     * Write the HTML report with the heatmap, marginals, Pareto front and most robust grid points
+     */
+    public void writeHtml(Path file) throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Sweep Sensitivity Report</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:24px}")
+                .append("td,th{border:1px solid #ccc;padding:2px 6px;font-size:12px;text-align:right}")
+                .append("table.heatmap td{width:6px;height:6px;padding:0;border:none}</style></head><body>\n")
+                .append("<h1>Sweep Sensitivity Report</h1>\n")
+                .append("<p>").append(snapshot.getRowCount()).append(" results</p>\n");
+
+        appendHeatmap(html);
+        appendMarginals(html, "Profit by SL %", snapshot.slMarginals());
+        appendMarginals(html, "Profit by entry time", snapshot.entryTimeMarginals());
+
+        List<SweepAnalytics.GridPoint> robust = snapshot.gridPointsByRobustness();
+        appendGridPoints(html, "Most robust grid points", robust.subList(0, Math.min(TOP_ROBUST_POINTS, robust.size())));
+        appendGridPoints(html, "Pareto front: overall profit vs expectancy", snapshot.paretoFront());
+
+        html.append("</body></html>\n");
+        Files.writeString(file, html, StandardCharsets.UTF_8);
+        LOGGER.info("Sensitivity report written to " + file.toAbsolutePath());
+    }
+
+    private void appendHeatmap(StringBuilder html) {
+        html.append("<h2>Mean overall profit: SL % x entry time</h2>\n<table class=\"heatmap\">\n");
+
+        // Entry time header, one label per group of columns so labels fit above the narrow cells
+        int step = snapshot.getEntryCount() <= HTML_ENTRY_TICK_STEP ? 1 : HTML_ENTRY_TICK_STEP;
+        html.append("<tr><th>SL % / Entry</th>");
+        for (int e = 0; e < snapshot.getEntryCount(); e += step) {
+            int span = Math.min(step, snapshot.getEntryCount() - e);
+            html.append("<th colspan=\"").append(span).append("\" style=\"text-align:left\">")
+                    .append(SweepAnalytics.formatMinute(snapshot.entryMinuteAt(e))).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (int s = 0; s < snapshot.getSlCount(); s++) {
+            html.append("<tr><th>").append(snapshot.slPercentAt(s)).append("%</th>");
+            for (int e = 0; e < snapshot.getEntryCount(); e++) {
+                double profit = snapshot.meanProfit(s, e);
+                Color colour = colour(profit);
+                html.append(String.format("<td style=\"background:#%06x\" title=\"SL=%d%% %s: %s\"></td>",
+                        colour.getRGB() & 0xFFFFFF, snapshot.slPercentAt(s),
+                        SweepAnalytics.formatMinute(snapshot.entryMinuteAt(e)), format(profit)));
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private void appendMarginals(StringBuilder html, String title, List<SweepAnalytics.Marginal> marginals) {
+        html.append("<h2>").append(title).append("</h2>\n<table><tr><th></th><th>Results</th><th>Mean</th><th>Min</th><th>Max</th></tr>\n");
+        for (SweepAnalytics.Marginal marginal : marginals) {
+            html.append("<tr><th>").append(marginal.getLabel()).append("</th><td>").append(marginal.getCount())
+                    .append("</td><td>").append(format(marginal.getMeanProfit()))
+                    .append("</td><td>").append(format(marginal.getMinProfit()))
+                    .append("</td><td>").append(format(marginal.getMaxProfit())).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private void appendGridPoints(StringBuilder html, String title, List<SweepAnalytics.GridPoint> points) {
+        html.append("<h2>").append(title).append("</h2>\n<table><tr><th>Grid point</th><th>Overall profit</th><th>Expectancy</th><th>Robustness</th></tr>\n");
+        for (SweepAnalytics.GridPoint point : points) {
+            html.append("<tr><th>").append(point.getLabel()).append("</th><td>").append(format(point.getMeanProfit()))
+                    .append("</td><td>").append(format(point.getMeanExpectancy()))
+                    .append("</td><td>").append(format(point.getRobustness())).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private Color colour(double profit) {
+        if (Double.isNaN(profit)) {
+            return EMPTY_CELL;
+        }
+        float intensity = colourScale > 0 ? (float) Math.min(1, Math.abs(profit) / colourScale) : 0;
+        int fade = Math.round(255 * (1 - intensity));
+        return profit >= 0 ? new Color(fade, 255, fade) : new Color(255, fade, fade);
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "N/A" : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
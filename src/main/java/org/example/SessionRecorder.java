@@ -0,0 +1,140 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Writes a recorded session to a local directory.
+ *
+ * Layout:
+ * - upstream.txt             base URL of the recorded live site
+ * - exchanges.tsv            one line per HTTP exchange: seq, method, path?query, request body hash, status
+ * - bodies/NNNNNN.headers    response headers, one "Name: value" per line
+ * - bodies/NNNNNN.body       raw response body, as received from the live site
+ * - dom/NNNNNN-step.html     DOM snapshots taken by the sweep, for inspection and diffing
+ *
+ * {@link RecordedSession} reads the same layout back for {@link ReplayServer}.
+ */
+public class SessionRecorder implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionRecorder.class.getName());
+
+    static final String UPSTREAM_FILE = "upstream.txt";
+    static final String INDEX_FILE = "exchanges.tsv";
+    static final String BODIES_DIR = "bodies";
+    static final String DOM_DIR = "dom";
+
+    private final Path directory;
+    private final BufferedWriter index;
+    private final AtomicInteger exchangeSeq = new AtomicInteger();
+    private final AtomicInteger snapshotSeq = new AtomicInteger();
+
+    /**
+     * @param directory directory to record into; an existing recording, including its bodies and DOM snapshots, is replaced
+     * @param upstream base URL of the live site being recorded
+     */
+    public SessionRecorder(Path directory, String upstream) throws IOException {
+        this.directory = directory;
+        clearDirectory(directory.resolve(BODIES_DIR));
+        clearDirectory(directory.resolve(DOM_DIR));
+        Files.writeString(directory.resolve(UPSTREAM_FILE), upstream, StandardCharsets.UTF_8);
+        this.index = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        LOGGER.info("Recording session to " + directory.toAbsolutePath());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Record a single HTTP exchange
+     * @param method request method (e.g., GET)
+     * @param target request path including the query string
+     * @param requestBody request body, so requests to the same URL with different payloads are told apart
+     * @param status response status code
+     * @param headers response headers
+     * @param body response body
+     */
+    public void recordExchange(String method, String target, byte[] requestBody, int status,
+                               Map<String, List<String>> headers, byte[] body) throws IOException {
+        int seq = exchangeSeq.incrementAndGet();
+        String name = String.format("%06d", seq);
+
+        StringBuilder headerLines = new StringBuilder();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                headerLines.append(header.getKey()).append(": ").append(value).append('\n');
+            }
+        }
+        Files.writeString(directory.resolve(BODIES_DIR).resolve(name + ".headers"), headerLines, StandardCharsets.UTF_8);
+        Files.write(directory.resolve(BODIES_DIR).resolve(name + ".body"), body);
+
+        // Index lines are appended last so a reader never sees an exchange without its files
+        synchronized (index) {
+            index.write(name + '\t' + method + '\t' + target + '\t' + bodyHash(requestBody) + '\t' + status);
+            index.newLine();
+            index.flush();
+        }
+    }
+
+    /**
+     * Save a DOM snapshot of the current page
+     * @param step name of the sweep step the snapshot belongs to
+     * @param html page source
+     */
+    public void recordDomSnapshot(String step, String html) {
+        String name = String.format("%06d-%s.html", snapshotSeq.incrementAndGet(), step.replaceAll("[^A-Za-z0-9_-]", "_"));
+        try {
+            Files.writeString(directory.resolve(DOM_DIR).resolve(name), html, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.warning("Could not save DOM snapshot " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a directory, or delete the files left in it by an earlier recording
+     */
+    private static void clearDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * SHA-256 of a request body as hex, or "-" for an empty body
+     */
+    static String bodyHash(byte[] requestBody) {
+        if (requestBody.length == 0) {
+            return "-";
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(requestBody));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (index) {
+            index.close();
+        }
+        LOGGER.info("Recorded " + exchangeSeq.get() + " exchanges and " + snapshotSeq.get() + " DOM snapshots");
+    }
+}
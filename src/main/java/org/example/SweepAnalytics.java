@@ -0,0 +1,389 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Incremental sensitivity analysis over a SL% x entry time sweep.
+ *
+ * Each result is folded into primitive per-cell accumulators as it arrives, so
+ * memory and update cost do not grow with the number of rows. Every writer
+ * thread gets its own shard of plain arrays, which keeps updates free of locks,
+ * memory barriers and contention; {@link #snapshot()} merges the shards.
+ *
+ * Shard updates are not published safely on their own. A snapshot is exact only
+ * if every write happens-before it, which the caller must establish: take it on
+ * the writer thread itself, or after {@code Thread.join()}, {@code Future.get()},
+ * {@code ExecutorService.awaitTermination()} or a similar hand-off from each
+ * writer. A snapshot taken while writers are still running may miss or partly
+ * see their latest updates and is only suitable for progress reporting.
+ */
+public class SweepAnalytics {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int slStart;
+    private final int slCount;
+    private final int entryStartMinute;
+    private final int entryCount;
+
+    private final Queue<Shard> shards = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Shard> localShard;
+
+    /**
+     * @param slStart first SL % in the grid
+     * @param slEnd last SL % in the grid
+     * @param entryStartMinute first entry time as minute of day (e.g., 9 * 60 + 16)
+     * @param entryEndMinute last entry time as minute of day; may wrap past midnight
+     */
+    public SweepAnalytics(int slStart, int slEnd, int entryStartMinute, int entryEndMinute) {
+        if (slEnd < slStart) {
+            throw new IllegalArgumentException("slEnd must be >= slStart");
+        }
+        this.slStart = slStart;
+        this.slCount = slEnd - slStart + 1;
+        this.entryStartMinute = entryStartMinute;
+        this.entryCount = Math.floorMod(entryEndMinute - entryStartMinute, MINUTES_PER_DAY) + 1;
+
+        int cells = slCount * entryCount;
+        this.localShard = ThreadLocal.withInitial(() -> {
+            Shard shard = new Shard(cells);
+            shards.add(shard);
+            return shard;
+        });
+    }
+
+    /**
+     * Primitive accumulators for every cell, owned by a single writer thread
+     */
+    private static class Shard {
+        final long[] count;
+        final double[] profitSum;
+        final double[] profitMin;
+        final double[] profitMax;
+        final long[] expectancyCount;
+        final double[] expectancySum;
+
+        Shard(int cells) {
+            count = new long[cells];
+            profitSum = new double[cells];
+            profitMin = new double[cells];
+            profitMax = new double[cells];
+            expectancyCount = new long[cells];
+            expectancySum = new double[cells];
+            Arrays.fill(profitMin, Double.POSITIVE_INFINITY);
+            Arrays.fill(profitMax, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Fold a single sweep result into the aggregates
+     * @param slPercent SL % of the grid point
+     * @param hour entry hour
+     * @param minute entry minute
+     * @param overallProfit captured profit; rows with NaN are ignored
+     * @param expectancy captured expectancy; NaN if not available
+     */
+    public void accept(int slPercent, int hour, int minute, double overallProfit, double expectancy) {
+        if (Double.isNaN(overallProfit)) {
+            return;
+        }
+        int cell = cellIndex(slPercent, hour * 60 + minute);
+
+        Shard shard = localShard.get();
+        shard.count[cell]++;
+        shard.profitSum[cell] += overallProfit;
+        if (overallProfit < shard.profitMin[cell]) {
+            shard.profitMin[cell] = overallProfit;
+        }
+        if (overallProfit > shard.profitMax[cell]) {
+            shard.profitMax[cell] = overallProfit;
+        }
+        if (!Double.isNaN(expectancy)) {
+            shard.expectancyCount[cell]++;
+            shard.expectancySum[cell] += expectancy;
+        }
+    }
+
+    /**
+     * Merge all shards into an immutable view of the aggregates.
+     * See the class comment for the happens-before requirement on writers.
+     */
+    public Snapshot snapshot() {
+        Shard merged = new Shard(slCount * entryCount);
+        for (Shard shard : shards) {
+            for (int cell = 0; cell < merged.count.length; cell++) {
+                merged.count[cell] += shard.count[cell];
+                merged.profitSum[cell] += shard.profitSum[cell];
+                merged.profitMin[cell] = Math.min(merged.profitMin[cell], shard.profitMin[cell]);
+                merged.profitMax[cell] = Math.max(merged.profitMax[cell], shard.profitMax[cell]);
+                merged.expectancyCount[cell] += shard.expectancyCount[cell];
+                merged.expectancySum[cell] += shard.expectancySum[cell];
+            }
+        }
+        return new Snapshot(merged);
+    }
+
+    private int cellIndex(int slPercent, int minuteOfDay) {
+        int slIndex = slPercent - slStart;
+        int entryIndex = Math.floorMod(minuteOfDay - entryStartMinute, MINUTES_PER_DAY);
+        if (slIndex < 0 || slIndex >= slCount || entryIndex >= entryCount) {
+            throw new IllegalArgumentException("Grid point SL=" + slPercent + "% " + formatMinute(minuteOfDay) + " is outside the analysed grid");
+        }
+        return slIndex * entryCount + entryIndex;
+    }
+
+    static String formatMinute(int minuteOfDay) {
+        int wrapped = Math.floorMod(minuteOfDay, MINUTES_PER_DAY);
+        return String.format("%02d:%02d", wrapped / 60, wrapped % 60);
+    }
+
+    /**
+     * Aggregates of one dimension value (a single SL % or a single entry time) over the other dimension
+     */
+    public static class Marginal {
+        final String label;
+        final long count;
+        final double meanProfit;
+        final double minProfit;
+        final double maxProfit;
+
+        Marginal(String label, long count, double meanProfit, double minProfit, double maxProfit) {
+            this.label = label;
+            this.count = count;
+            this.meanProfit = meanProfit;
+            this.minProfit = minProfit;
+            this.maxProfit = maxProfit;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanProfit() {
+            return meanProfit;
+        }
+
+        public double getMinProfit() {
+            return minProfit;
+        }
+
+        public double getMaxProfit() {
+            return maxProfit;
+        }
+    }
+
+    /**
+     * A single grid point with its mean results
+     */
+    public static class GridPoint {
+        final int slPercent;
+        final int entryMinute;
+        final double meanProfit;
+        final double meanExpectancy;
+        final double robustness;
+
+        GridPoint(int slPercent, int entryMinute, double meanProfit, double meanExpectancy, double robustness) {
+            this.slPercent = slPercent;
+            this.entryMinute = entryMinute;
+            this.meanProfit = meanProfit;
+            this.meanExpectancy = meanExpectancy;
+            this.robustness = robustness;
+        }
+
+        public int getSlPercent() {
+            return slPercent;
+        }
+
+        /**
+         * Entry time as minute of day
+         */
+        public int getEntryMinute() {
+            return entryMinute;
+        }
+
+        public double getMeanProfit() {
+            return meanProfit;
+        }
+
+        public double getMeanExpectancy() {
+            return meanExpectancy;
+        }
+
+        public double getRobustness() {
+            return robustness;
+        }
+
+        public String getLabel() {
+            return "SL=" + slPercent + "% " + formatMinute(entryMinute);
+        }
+    }
+
+    /**
+     * Merged aggregates at a point in time
+     */
+    public class Snapshot {
+
+        private final Shard cells;
+
+        private Snapshot(Shard cells) {
+            this.cells = cells;
+        }
+
+        public int getSlCount() {
+            return slCount;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public int slPercentAt(int slIndex) {
+            return slStart + slIndex;
+        }
+
+        public int entryMinuteAt(int entryIndex) {
+            return Math.floorMod(entryStartMinute + entryIndex, MINUTES_PER_DAY);
+        }
+
+        public long getRowCount() {
+            long rows = 0;
+            for (long count : cells.count) {
+                rows += count;
+            }
+            return rows;
+        }
+
+        /**
+         * Mean profit of a heatmap cell, or NaN if the grid point has no result yet
+         */
+        public double meanProfit(int slIndex, int entryIndex) {
+            int cell = slIndex * entryCount + entryIndex;
+            return cells.count[cell] > 0 ? cells.profitSum[cell] / cells.count[cell] : Double.NaN;
+        }
+
+        /**
+         * Mean expectancy of a heatmap cell, or NaN if none was captured
+         */
+        public double meanExpectancy(int slIndex, int entryIndex) {
+            int cell = slIndex * entryCount + entryIndex;
+            return cells.expectancyCount[cell] > 0 ? cells.expectancySum[cell] / cells.expectancyCount[cell] : Double.NaN;
+        }
+
+        /**
+         * Profit aggregated per SL % over all entry times
+         */
+        public List<Marginal> slMarginals() {
+            List<Marginal> marginals = new ArrayList<>(slCount);
+            for (int s = 0; s < slCount; s++) {
+                marginals.add(marginal(slPercentAt(s) + "%", s * entryCount, 1, entryCount));
+            }
+            return marginals;
+        }
+
+        /**
+         * Profit aggregated per entry time over all SL % values
+         */
+        public List<Marginal> entryTimeMarginals() {
+            List<Marginal> marginals = new ArrayList<>(entryCount);
+            for (int e = 0; e < entryCount; e++) {
+                marginals.add(marginal(formatMinute(entryMinuteAt(e)), e, entryCount, slCount));
+            }
+            return marginals;
+        }
+
+        private Marginal marginal(String label, int firstCell, int stride, int length) {
+            long count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0, cell = firstCell; i < length; i++, cell += stride) {
+                count += cells.count[cell];
+                sum += cells.profitSum[cell];
+                min = Math.min(min, cells.profitMin[cell]);
+                max = Math.max(max, cells.profitMax[cell]);
+            }
+            return count > 0
+                    ? new Marginal(label, count, sum / count, min, max)
+                    : new Marginal(label, 0, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        /**
+         * Robustness of a grid point: mean profit over its 3x3 neighbourhood minus the
+         * standard deviation over it, so isolated spikes score lower than stable plateaus
+         * @return score, or NaN if the grid point has no result yet
+         */
+        public double robustness(int slIndex, int entryIndex) {
+            if (Double.isNaN(meanProfit(slIndex, entryIndex))) {
+                return Double.NaN;
+            }
+            int n = 0;
+            double sum = 0;
+            double sumSquares = 0;
+            for (int s = Math.max(0, slIndex - 1); s <= Math.min(slCount - 1, slIndex + 1); s++) {
+                for (int e = Math.max(0, entryIndex - 1); e <= Math.min(entryCount - 1, entryIndex + 1); e++) {
+                    double value = meanProfit(s, e);
+                    if (!Double.isNaN(value)) {
+                        n++;
+                        sum += value;
+                        sumSquares += value * value;
+                    }
+                }
+            }
+            double mean = sum / n;
+            double variance = Math.max(0, sumSquares / n - mean * mean);
+            return mean - Math.sqrt(variance);
+        }
+
+        /**
+         * All grid points with results, ordered by robustness, most robust first
+         */
+        public List<GridPoint> gridPointsByRobustness() {
+            List<GridPoint> points = gridPoints(false);
+            points.sort(Comparator.comparingDouble(GridPoint::getRobustness).reversed());
+            return points;
+        }
+
+        /**
+         * Grid points not dominated on both mean profit and mean expectancy, ordered by profit
+         */
+        public List<GridPoint> paretoFront() {
+            List<GridPoint> points = gridPoints(true);
+            points.sort(Comparator.comparingDouble(GridPoint::getMeanProfit)
+                    .thenComparingDouble(GridPoint::getMeanExpectancy).reversed());
+
+            List<GridPoint> front = new ArrayList<>();
+            double bestExpectancy = Double.NEGATIVE_INFINITY;
+            for (GridPoint point : points) {
+                if (point.meanExpectancy > bestExpectancy) {
+                    front.add(point);
+                    bestExpectancy = point.meanExpectancy;
+                }
+            }
+            return front;
+        }
+
+        private List<GridPoint> gridPoints(boolean requireExpectancy) {
+            List<GridPoint> points = new ArrayList<>();
+            for (int s = 0; s < slCount; s++) {
+                for (int e = 0; e < entryCount; e++) {
+                    double profit = meanProfit(s, e);
+                    double expectancy = meanExpectancy(s, e);
+                    if (Double.isNaN(profit) || (requireExpectancy && Double.isNaN(expectancy))) {
+                        continue;
+                    }
+                    points.add(new GridPoint(slPercentAt(s), entryMinuteAt(e), profit, expectancy, robustness(s, e)));
+                }
+            }
+            return points;
+        }
+    }
+}
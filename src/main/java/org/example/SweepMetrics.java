@@ -0,0 +1,221 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Progress counters and gauges for a parameter sweep.
+ *
+ * All update methods are lock-free so they can be called from any number of
+ * worker threads; {@link SweepMetricsServer} reads them to expose progress,
+ * throughput, ETA, error rate, per-step latency and the best results so far.
+ */
+public class SweepMetrics {
+
+    private static final int DEFAULT_TOP_K = 10;
+
+    // First number with optional thousands separators and decimals; a leading minus
+    // (ASCII or U+2212) may be separated from the digits by a currency symbol or spaces
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(?:([-\u2212])[^\\d\\-\u2212]{0,4}?)?(\\d[\\d,]*(?:\\.\\d+)?)");
+
+    private final long totalPoints;
+    private final int topK;
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Map<String, LatencyHistogram> stepLatencies = new ConcurrentHashMap<>();
+    private final AtomicReference<RankedResult[]> best = new AtomicReference<>(new RankedResult[0]);
+
+    public SweepMetrics(long totalPoints) {
+        this(totalPoints, DEFAULT_TOP_K);
+    }
+
+    public SweepMetrics(long totalPoints, int topK) {
+        if (totalPoints < 0 || topK <= 0) {
+            throw new IllegalArgumentException("totalPoints must be >= 0 and topK must be > 0");
+        }
+        this.totalPoints = totalPoints;
+        this.topK = topK;
+    }
+
+    /**
+     * A grid point ranked by overall profit
+     */
+    public static class RankedResult {
+        final String gridPoint;
+        final double overallProfit;
+
+        RankedResult(String gridPoint, double overallProfit) {
+            this.gridPoint = gridPoint;
+            this.overallProfit = overallProfit;
+        }
+
+        public String getGridPoint() {
+            return gridPoint;
+        }
+
+        public double getOverallProfit() {
+            return overallProfit;
+        }
+    }
+
+    /**
+     * Record a grid point that produced a result
+     * @param gridPoint human readable label of the grid point (e.g., "SL=25% 09:30")
+     * @param overallProfit captured profit; NaN if the value could not be parsed
+     */
+    public void recordCompleted(String gridPoint, double overallProfit) {
+        completed.increment();
+        if (!Double.isNaN(overallProfit)) {
+            offerBest(new RankedResult(gridPoint, overallProfit));
+        }
+    }
+
+    /**
+     * Record a grid point that failed to produce a result
+     */
+    public void recordFailed() {
+        failed.increment();
+    }
+
+    /**
+     * Record the duration of one step (e.g., "edit", "run", "capture")
+     */
+    public void recordStepLatency(String step, long millis) {
+        stepLatencies.computeIfAbsent(step, key -> new LatencyHistogram()).record(millis);
+    }
+
+    public void sessionStarted() {
+        activeSessions.incrementAndGet();
+    }
+
+    public void sessionEnded() {
+        activeSessions.decrementAndGet();
+    }
+
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRemaining() {
+        return Math.max(0, totalPoints - getCompleted() - getFailed());
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Processed grid points (completed + failed) per second since the sweep started
+     */
+    public double getPointsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? (getCompleted() + getFailed()) / elapsed : 0;
+    }
+
+    /**
+     * Estimated seconds until the sweep finishes, or -1 if no point has been processed yet
+     */
+    public double getEtaSeconds() {
+        double rate = getPointsPerSecond();
+        return rate > 0 ? getRemaining() / rate : -1;
+    }
+
+    /**
+     * Fraction of processed grid points that failed
+     */
+    public double getErrorRate() {
+        long processed = getCompleted() + getFailed();
+        return processed > 0 ? getFailed() / (double) processed : 0;
+    }
+
+    public Map<String, LatencyHistogram> getStepLatencies() {
+        return Collections.unmodifiableMap(stepLatencies);
+    }
+
+    /**
+     * Current top-K grid points ordered by overall profit, best first
+     */
+    public List<RankedResult> getBest() {
+        return List.of(best.get());
+    }
+
+    /**
+     * Parse the first number in a value as displayed on a results card (e.g., "Rs. -1,234.50" or "-₹1,234.50")
+     * @return parsed value, or NaN if the text holds no number
+     */
+    public static double parseNumber(String text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        Matcher matcher = NUMBER_PATTERN.matcher(text);
+        if (!matcher.find()) {
+            return Double.NaN;
+        }
+        double value = Double.parseDouble(matcher.group(2).replace(",", ""));
+        return matcher.group(1) != null && !isSeparator(text, matcher.start(1)) ? -value : value;
+    }
+
+    /**
+     * A dash with spaces after it that follows a word, as in "Expectancy - 56.78", separates a label from its value
+     */
+    private static boolean isSeparator(String text, int dash) {
+        if (dash + 1 >= text.length() || !Character.isWhitespace(text.charAt(dash + 1))) {
+            return false;
+        }
+        int before = dash - 1;
+        while (before >= 0 && Character.isWhitespace(text.charAt(before))) {
+            before--;
+        }
+        return before >= 0 && Character.isLetterOrDigit(text.charAt(before));
+    }
+
+    /**
+     * Insert into the top-K array with a copy-on-write CAS loop
+     */
+    private void offerBest(RankedResult candidate) {
+        while (true) {
+            RankedResult[] current = best.get();
+            if (current.length == topK && candidate.overallProfit <= current[current.length - 1].overallProfit) {
+                return;
+            }
+
+            int insertAt = 0;
+            while (insertAt < current.length && current[insertAt].overallProfit >= candidate.overallProfit) {
+                insertAt++;
+            }
+
+            int newLength = Math.min(topK, current.length + 1);
+            RankedResult[] updated = new RankedResult[newLength];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = candidate;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, newLength - insertAt - 1);
+
+            if (best.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP endpoint exposing {@link SweepMetrics} while a sweep is running.
+ *
+ * Endpoints:
+ * - GET /metrics      Prometheus text exposition format
+ * - GET /metrics.json the same values as JSON, plus the current top-K results
+ *
+ * Example: {@code curl http://localhost:9400/metrics.json}
+ */
+public class SweepMetricsServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SweepMetricsServer.class.getName());
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final SweepMetrics metrics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private SweepMetricsServer(SweepMetrics metrics, HttpServer server, ExecutorService executor) {
+        this.metrics = metrics;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Start serving the given metrics on localhost
+     * @param metrics metrics to expose
+     * @param port port to bind; 0 picks a free port
+     * @return running server
+     */
+    public static SweepMetricsServer start(SweepMetrics metrics, int port) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sweep-metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SweepMetricsServer metricsServer = new SweepMetricsServer(metrics, httpServer, executor);
+
+        httpServer.createContext("/metrics.json", exchange -> respond(exchange, "application/json", metricsServer::renderJson));
+        httpServer.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", metricsServer::renderPrometheus));
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        LOGGER.info("Sweep metrics available at http://localhost:" + metricsServer.getPort() + "/metrics");
+        return metricsServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOGGER.info("Sweep metrics server stopped");
+    }
+
+    /**
+     * Render all metrics in the Prometheus text exposition format
+     */
+    String renderPrometheus() {
+        StringBuilder out = new StringBuilder();
+        appendMetric(out, "sweep_grid_points", "gauge", "Total grid points in the sweep", metrics.getTotalPoints());
+        appendMetric(out, "sweep_points_completed_total", "counter", "Grid points that produced a result", metrics.getCompleted());
+        appendMetric(out, "sweep_points_failed_total", "counter", "Grid points that failed", metrics.getFailed());
+        appendMetric(out, "sweep_points_remaining", "gauge", "Grid points not processed yet", metrics.getRemaining());
+        appendMetric(out, "sweep_active_sessions", "gauge", "Browser sessions currently running", metrics.getActiveSessions());
+        appendMetric(out, "sweep_points_per_second", "gauge", "Processed grid points per second", metrics.getPointsPerSecond());
+        appendMetric(out, "sweep_eta_seconds", "gauge", "Estimated seconds until completion (-1 if unknown)", metrics.getEtaSeconds());
+        appendMetric(out, "sweep_error_rate", "gauge", "Fraction of processed grid points that failed", metrics.getErrorRate());
+
+        out.append("# HELP sweep_step_latency_milliseconds Latency of each sweep step\n");
+        out.append("# TYPE sweep_step_latency_milliseconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getStepLatencies().entrySet()) {
+            String step = escapeLabel(entry.getKey());
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                out.append("sweep_step_latency_milliseconds{step=\"").append(step)
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.percentile(quantile)).append('\n');
+            }
+            out.append("sweep_step_latency_milliseconds_sum{step=\"").append(step).append("\"} ")
+                    .append(histogram.getSumMillis()).append('\n');
+            out.append("sweep_step_latency_milliseconds_count{step=\"").append(step).append("\"} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+
+        out.append("# HELP sweep_best_overall_profit Best overall profit values so far\n");
+        out.append("# TYPE sweep_best_overall_profit gauge\n");
+        List<SweepMetrics.RankedResult> best = metrics.getBest();
+        for (int rank = 0; rank < best.size(); rank++) {
+            SweepMetrics.RankedResult result = best.get(rank);
+            out.append("sweep_best_overall_profit{rank=\"").append(rank + 1)
+                    .append("\",grid_point=\"").append(escapeLabel(result.getGridPoint())).append("\"} ")
+                    .append(formatNumber(result.getOverallProfit())).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Render all metrics as a JSON document
+     */
+    String renderJson() {
+        StringBuilder out = new StringBuilder("{");
+        out.append("\"totalPoints\":").append(metrics.getTotalPoints());
+        out.append(",\"completed\":").append(metrics.getCompleted());
+        out.append(",\"failed\":").append(metrics.getFailed());
+        out.append(",\"remaining\":").append(metrics.getRemaining());
+        out.append(",\"activeSessions\":").append(metrics.getActiveSessions());
+        out.append(",\"elapsedSeconds\":").append(formatNumber(metrics.getElapsedSeconds()));
+        out.append(",\"pointsPerSecond\":").append(formatNumber(metrics.getPointsPerSecond()));
+        out.append(",\"etaSeconds\":").append(formatNumber(metrics.getEtaSeconds()));
+        out.append(",\"errorRate\":").append(formatNumber(metrics.getErrorRate()));
+
+        out.append(",\"stepLatencyMillis\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getStepLatencies().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            out.append(first ? "" : ",").append(quote(entry.getKey())).append(":{");
+            out.append("\"count\":").append(histogram.getCount());
+            out.append(",\"p50\":").append(histogram.percentile(0.5));
+            out.append(",\"p90\":").append(histogram.percentile(0.9));
+            out.append(",\"p99\":").append(histogram.percentile(0.99));
+            out.append('}');
+            first = false;
+        }
+        out.append('}');
+
+        out.append(",\"best\":[");
+        first = true;
+        for (SweepMetrics.RankedResult result : metrics.getBest()) {
+            out.append(first ? "" : ",").append("{\"gridPoint\":").append(quote(result.getGridPoint()))
+                    .append(",\"overallProfit\":").append(formatNumber(result.getOverallProfit())).append('}');
+            first = false;
+        }
+        out.append("]}");
+        return out.toString();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, Supplier<String> body) throws IOException {
+        try (exchange) {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        }
+    }
+
+    private static void appendMetric(StringBuilder out, String name, String type, String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(formatNumber(value)).append('\n');
+    }
+
+    private static String formatNumber(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String quote(String value) {
+        return "\"" + escapeLabel(value) + "\"";
+    }
+}
@@ -0,0 +1,301 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for recording a session through the proxy, replaying it and comparing against a baseline.
+ */
+public class RecordReplayTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private HttpServer upstream;
+    private final AtomicInteger upstreamHits = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for the live site: every call returns a different counter value
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/", exchange -> {
+            byte[] body = ("hit " + upstreamHits.incrementAndGet() + " " + exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+    }
+
+    @After
+    public void tearDown() {
+        upstream.stop(0);
+    }
+
+    @Test
+    public void testRecordedSessionIsReplayedInOrderWithoutUpstream() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("session");
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+        try (SessionRecorder recorder = new SessionRecorder(directory, upstreamUrl);
+             RecordingProxy proxy = RecordingProxy.start(upstreamUrl, recorder, 0)) {
+            assertEquals("hit 1 /api/run?sl=5", get(proxy.getBaseUrl() + "/api/run?sl=5"));
+            assertEquals("hit 2 /api/run?sl=5", get(proxy.getBaseUrl() + "/api/run?sl=5"));
+            assertEquals("hit 3 /api/save", post(proxy.getBaseUrl() + "/api/save", "{\"sl\":5}"));
+            assertEquals("hit 4 /api/save", post(proxy.getBaseUrl() + "/api/save", "{\"sl\":6}"));
+            recorder.recordDomSnapshot("result SL5", "<html></html>");
+        }
+        assertTrue(Files.exists(directory.resolve("dom").resolve("000001-result_SL5.html")));
+
+        RecordedSession session = RecordedSession.load(directory);
+        assertEquals(4, session.size());
+
+        try (ReplayServer replay = ReplayServer.start(session, 0, 5, 5, 1)) {
+            assertEquals("hit 1 /api/run?sl=5", get(replay.getBaseUrl() + "/api/run?sl=5"));
+            assertEquals("hit 2 /api/run?sl=5", get(replay.getBaseUrl() + "/api/run?sl=5"));
+
+            // Payloads select their own recording, whatever order they are replayed in
+            assertEquals("hit 4 /api/save", post(replay.getBaseUrl() + "/api/save", "{\"sl\":6}"));
+            assertEquals("hit 3 /api/save", post(replay.getBaseUrl() + "/api/save", "{\"sl\":5}"));
+            assertEquals(0, replay.getUnmatchedRequests());
+
+            // Exhausted, unknown payload and unknown path are all misses, never stale responses
+            assertEquals(404, status(replay.getBaseUrl() + "/api/run?sl=5", null));
+            assertEquals(404, status(replay.getBaseUrl() + "/api/save", "{\"sl\":7}"));
+            assertEquals(404, status(replay.getBaseUrl() + "/api/unknown", null));
+            assertEquals(3, replay.getUnmatchedRequests());
+        }
+        assertEquals(4, upstreamHits.get());
+    }
+
+    @Test
+    public void testNewRecordingReplacesEarlierFiles() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("session");
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+        try (SessionRecorder recorder = new SessionRecorder(directory, upstreamUrl);
+             RecordingProxy proxy = RecordingProxy.start(upstreamUrl, recorder, 0)) {
+            get(proxy.getBaseUrl() + "/a");
+            get(proxy.getBaseUrl() + "/b");
+            recorder.recordDomSnapshot("first", "<html></html>");
+            recorder.recordDomSnapshot("second", "<html></html>");
+        }
+        try (SessionRecorder recorder = new SessionRecorder(directory, upstreamUrl)) {
+            recorder.recordDomSnapshot("only", "<html></html>");
+        }
+
+        assertEquals(0, RecordedSession.load(directory).size());
+        try (Stream<Path> bodies = Files.list(directory.resolve("bodies"));
+             Stream<Path> snapshots = Files.list(directory.resolve("dom"))) {
+            assertEquals(0, bodies.count());
+            assertEquals(List.of(directory.resolve("dom").resolve("000001-only.html")), snapshots.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testAbsoluteUpstreamUrlsAreRewrittenToLocalServer() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("session");
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+        upstream.createContext("/page", exchange -> {
+            byte[] body = ("<script src=\"" + upstreamUrl + "/app.js\"></script>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.getResponseHeaders().add("Content-Security-Policy", "script-src 'self' " + upstreamUrl);
+            exchange.getResponseHeaders().add("Access-Control-Allow-Origin", upstreamUrl);
+            exchange.getResponseHeaders().add("Set-Cookie", "session=1; Domain=stockmock.in; Secure; Path=/");
+            exchange.getResponseHeaders().add("Set-Cookie", "csrf=2; Domain=.stockmock.in; SameSite=None; Secure");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+
+        try (SessionRecorder recorder = new SessionRecorder(directory, upstreamUrl);
+             RecordingProxy proxy = RecordingProxy.start(upstreamUrl, recorder, 0)) {
+            assertEquals("<script src=\"" + proxy.getBaseUrl() + "/app.js\"></script>", get(proxy.getBaseUrl() + "/page"));
+        }
+
+        try (ReplayServer replay = ReplayServer.start(RecordedSession.load(directory), 0, 0, 0, 1)) {
+            HttpURLConnection connection = (HttpURLConnection) new URL(replay.getBaseUrl() + "/page").openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                assertEquals("<script src=\"" + replay.getBaseUrl() + "/app.js\"></script>",
+                        new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                assertEquals(Set.of("session=1; Secure; Path=/", "csrf=2; SameSite=None; Secure"),
+                        new HashSet<>(headerValues(connection, "Set-Cookie")));
+                assertEquals("script-src 'self' " + replay.getBaseUrl(), connection.getHeaderField("Content-Security-Policy"));
+                assertEquals(replay.getBaseUrl(), connection.getHeaderField("Access-Control-Allow-Origin"));
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @Test
+    public void testForwardedRequestsCarryTheUpstreamOrigin() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("session");
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+        upstream.createContext("/api/login", exchange -> {
+            byte[] body = (exchange.getRequestHeaders().getFirst("Origin") + " "
+                    + exchange.getRequestHeaders().getFirst("Referer")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+
+        try (SessionRecorder recorder = new SessionRecorder(directory, upstreamUrl);
+             RecordingProxy proxy = RecordingProxy.start(upstreamUrl, recorder, 0)) {
+            // HttpURLConnection refuses to set Origin, so send the request like a browser would
+            HttpRequest request = HttpRequest.newBuilder(URI.create(proxy.getBaseUrl() + "/api/login"))
+                    .header("Origin", proxy.getBaseUrl())
+                    .header("Referer", proxy.getBaseUrl() + "/login")
+                    .POST(HttpRequest.BodyPublishers.ofString("user=a"))
+                    .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(upstreamUrl + " " + upstreamUrl + "/login", response.body());
+        }
+    }
+
+    @Test
+    public void testJitterDependsOnlyOnSeedRequestAndPosition() {
+        long first = ReplayServer.delayMillis(50, 100, 42, "GET /api/run -", 3);
+        assertEquals(first, ReplayServer.delayMillis(50, 100, 42, "GET /api/run -", 3));
+        assertTrue(first >= 50 && first <= 150);
+        assertEquals(50, ReplayServer.delayMillis(50, 0, 42, "GET /api/run -", 3));
+
+        Set<Long> delays = new HashSet<>();
+        for (int position = 0; position < 20; position++) {
+            delays.add(ReplayServer.delayMillis(0, 1000, 42, "GET /api/run -", position));
+        }
+        assertTrue(delays.size() > 1);
+    }
+
+    @Test
+    public void testBaselineRoundTripsAndFlagsRegressionsOverThreshold() throws IOException {
+        Path baselineFile = temporaryFolder.getRoot().toPath().resolve("baseline.properties");
+        PerformanceBaseline.from(finishedRun(100)).save(baselineFile);
+        assertTrue(Files.readString(baselineFile).contains("step.run.mean=100.0"));
+
+        PerformanceBaseline baseline = baseline(100);
+        assertTrue(PerformanceBaseline.from(finishedRun(105)).findRegressions(baseline, 0.1).isEmpty());
+        assertEquals(List.of("step.run.mean rose from 100.0ms to 400.0ms"),
+                PerformanceBaseline.from(finishedRun(400)).findRegressions(baseline, 0.1));
+    }
+
+    @Test
+    public void testBaselineFlagsSlowdownWithinOneHistogramBucket() throws IOException {
+        // 3000ms and 3450ms fall into the same 2500-5000ms histogram bucket
+        assertEquals(List.of("step.run.mean rose from 3000.0ms to 3450.0ms"),
+                PerformanceBaseline.from(finishedRun(3450, 3450)).findRegressions(baseline(3000), 0.1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBaselineIsNotTakenFromIncompleteRun() {
+        SweepMetrics metrics = new SweepMetrics(2);
+        metrics.recordCompleted("SL=5% 09:16", 100);
+        metrics.recordFailed();
+        PerformanceBaseline.from(metrics);
+    }
+
+    @Test
+    public void testBaselineWithoutThroughputIsRejected() throws IOException {
+        Path baselineFile = temporaryFolder.getRoot().toPath().resolve("broken.properties");
+        Files.writeString(baselineFile, "pointsPerSecond=0\n");
+        assertEquals(1, PerformanceBaseline.from(finishedRun(100)).findRegressions(PerformanceBaseline.load(baselineFile), 0.1).size());
+    }
+
+    /**
+     * A fully processed sweep with one "run" step latency per grid point
+     */
+    private static SweepMetrics finishedRun(long... runMillis) {
+        SweepMetrics metrics = new SweepMetrics(runMillis.length);
+        for (long millis : runMillis) {
+            metrics.recordStepLatency("run", millis);
+            metrics.recordCompleted("point", 1);
+        }
+        return metrics;
+    }
+
+    /**
+     * A stored baseline with a throughput any test run exceeds
+     */
+    private PerformanceBaseline baseline(double runMeanMillis) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.writeString(file, "pointsPerSecond=0.000001\nstep.run.mean=" + runMeanMillis + "\n");
+        return PerformanceBaseline.load(file);
+    }
+
+    private static String post(String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream response = connection.getInputStream()) {
+            assertEquals(200, connection.getResponseCode());
+            return new String(response.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static int status(String url, String postBody) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            if (postBody != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(postBody.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            assertEquals(200, connection.getResponseCode());
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static List<String> headerValues(HttpURLConnection connection, String name) {
+        return connection.getHeaderFields().entrySet().stream()
+                .filter(header -> name.equalsIgnoreCase(header.getKey()))
+                .findFirst().map(Map.Entry::getValue).orElse(List.of());
+    }
+}
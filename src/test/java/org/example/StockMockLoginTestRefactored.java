@@ -2,6 +2,7 @@ package org.example;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.openqa.selenium.By;
@@ -19,9 +20,15 @@ import org.apache.poi.ss.usermodel.Cell;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -43,8 +50,26 @@ public class StockMockLoginTestRefactored {
     private static final String PHONE_NO = "9790395662";
     private static final String PASSWORD = "";
 
-    // URLs
-    private static final String BASE_URL = "https://www.stockmock.in";
+    // URLs (override with -Dstockmock.baseUrl to run against a mock site)
+    private static final String BASE_URL = System.getProperty("stockmock.baseUrl", "https://www.stockmock.in");
+
+    // Sweep range for SL %
+    private static final int SL_PERCENT_START = 5;
+    private static final int SL_PERCENT_END = 100;
+
+    // Port for the live sweep metrics endpoint (-Dsweep.metrics.port, 0 picks a free port, unset disables it)
+    private static final int METRICS_PORT = Integer.getInteger("sweep.metrics.port", -1);
+
+    // Record-and-replay (-Dstockmock.record=<dir> records through a proxy, -Dstockmock.replay=<dir> serves a recording)
+    private static final String RECORD_DIR = System.getProperty("stockmock.record");
+    private static final String REPLAY_DIR = System.getProperty("stockmock.replay");
+    private static final long REPLAY_LATENCY_MS = Long.getLong("replay.latencyMs", 0);
+    private static final long REPLAY_JITTER_MS = Long.getLong("replay.jitterMs", 0);
+    private static final long REPLAY_SEED = Long.getLong("replay.seed", 42);
+
+    // Performance baseline (-Dsweep.baseline=<file>, written on first run and compared against afterwards)
+    private static final String BASELINE_FILE = System.getProperty("sweep.baseline");
+    private static final double REGRESSION_THRESHOLD = Double.parseDouble(System.getProperty("sweep.regressionThreshold", "0.10"));
 
     // Locators - Phone and Password fields
     private static final By PHONE_INPUT_LOCATOR = By.id("user-phone-no");
@@ -85,6 +110,22 @@ public class StockMockLoginTestRefactored {
     
     // Store test results for Excel export
     private List<TestResult> testResults = new ArrayList<>();
+
+    // Live sweep progress, exposed over HTTP when METRICS_PORT is set
+    private SweepMetrics sweepMetrics;
+    private SweepMetricsServer metricsServer;
+
+    // Incremental SL % x entry time analytics, rendered to a report at the end of the sweep
+    private SweepAnalytics sweepAnalytics;
+
+    // URL the browser talks to: the live site, the recording proxy or the replay server
+    private String siteUrl = BASE_URL;
+    private SessionRecorder sessionRecorder;
+    private RecordingProxy recordingProxy;
+    private ReplayServer replayServer;
+
+    // Resources the page loaded from anywhere other than siteUrl (not recorded, and not allowed during replay)
+    private Set<String> externalRequests = new LinkedHashSet<>();
     
     /**
      * Inner class to store test result data
@@ -108,13 +149,19 @@ public class StockMockLoginTestRefactored {
     }
 
     @Before
-    public void setUp() {
+    public void setUp() throws IOException {
+        startRecordOrReplay();
+
         LOGGER.info("Setting up WebDriver...");
         WebDriverManager.chromedriver().setup();
 
         ChromeOptions options = new ChromeOptions();
         options.addArguments("start-maximized");
         options.addArguments("disable-blink-features=AutomationControlled");
+        if (replayServer != null) {
+            // Keep the replay offline: no host name other than localhost resolves
+            options.addArguments("host-resolver-rules=MAP * ~NOTFOUND , EXCLUDE localhost");
+        }
 
         this.driver = new ChromeDriver(options);
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_WAIT_TIMEOUT));
@@ -124,6 +171,15 @@ public class StockMockLoginTestRefactored {
 
     @Test
     public void testStockMockLoginAndStrategyExecution() {
+        boolean sweepSucceeded = false;
+
+        // Generate entry times from 9:16 to 12:00 (incrementing by 1 minute)
+        int[][] entryTimes = generateTimeRange(9, 16, 12, 0);
+        startSweepMetrics((long) (SL_PERCENT_END - SL_PERCENT_START + 1) * entryTimes.length);
+        int[] lastEntryTime = entryTimes[entryTimes.length - 1];
+        sweepAnalytics = new SweepAnalytics(SL_PERCENT_START, SL_PERCENT_END,
+                entryTimes[0][0] * 60 + entryTimes[0][1], lastEntryTime[0] * 60 + lastEntryTime[1]);
+
         try {
             navigateToStockMock();
             login();
@@ -132,11 +188,8 @@ public class StockMockLoginTestRefactored {
             selectBasketStrategy();
             configureWeekdaySetting();
 
-            // Generate entry times from 9:16 to 12:00 (incrementing by 1 minute)
-            int[][] entryTimes = generateTimeRange(9, 16, 12, 0);
-            
             // Loop through SL % values (5 to 100) and entry times
-            for (int slPercent = 5; slPercent <= 100; slPercent++) {
+            for (int slPercent = SL_PERCENT_START; slPercent <= SL_PERCENT_END; slPercent++) {
                 for (int[] entryTime : entryTimes) {
                     int hour = entryTime[0];
                     int minute = entryTime[1];
@@ -145,9 +198,8 @@ public class StockMockLoginTestRefactored {
                     LOGGER.info("Testing with SL%: " + slPercent + ", Entry Time: " + hour + ":" + (minute < 10 ? "0" : "") + minute);
                     LOGGER.info("========================================");
 
-                    editAndUpdateStrategy(slPercent, hour, minute);
-                    runStrategy();
-                    captureResults(slPercent, hour, minute);
+                    runGridPoint(slPercent, hour, minute);
+                    collectExternalRequests();
 
                     LOGGER.info("Completed iteration: SL%=" + slPercent + ", Entry Time=" + hour + ":" + (minute < 10 ? "0" : "") + minute);
                     LOGGER.info("");
@@ -157,19 +209,183 @@ public class StockMockLoginTestRefactored {
             // Export results to Excel
             exportResultsToExcel();
 
+            sweepSucceeded = true;
             LOGGER.info("Test completed successfully!");
         } catch (Exception e) {
             LOGGER.severe("Test failed: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            sweepMetrics.sessionEnded();
+            // Also after an aborted sweep: the aggregates of the points that did run are still valid
+            exportSensitivityReport();
         }
+
+        checkReplayIsolation();
+        checkPerformanceBaseline(sweepSucceeded);
+    }
+
+    /**
+     * Start the recording proxy or the replay server when requested, and point the browser at it
+     */
+    private void startRecordOrReplay() throws IOException {
+        if (RECORD_DIR != null && REPLAY_DIR != null) {
+            throw new IllegalStateException("stockmock.record and stockmock.replay cannot be used together");
+        }
+        if (RECORD_DIR != null) {
+            sessionRecorder = new SessionRecorder(Paths.get(RECORD_DIR), BASE_URL);
+            recordingProxy = RecordingProxy.start(BASE_URL, sessionRecorder, 0);
+            siteUrl = recordingProxy.getBaseUrl();
+        } else if (REPLAY_DIR != null) {
+            RecordedSession session = RecordedSession.load(Paths.get(REPLAY_DIR));
+            replayServer = ReplayServer.start(session, 0, REPLAY_LATENCY_MS, REPLAY_JITTER_MS, REPLAY_SEED);
+            siteUrl = replayServer.getBaseUrl();
+        }
+    }
+
+    /**
+     * Save a DOM snapshot of the current page when recording
+     */
+    private void snapshotDom(String step) {
+        if (sessionRecorder != null) {
+            sessionRecorder.recordDomSnapshot(step, driver.getPageSource());
+        }
+    }
+
+    /**
+     * Remember resources the page loaded from origins other than siteUrl, then clear the browser's resource timing buffer
+     */
+    private void collectExternalRequests() {
+        if (sessionRecorder == null && replayServer == null) {
+            return;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            List<String> urls = (List<String>) ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(
+                    "performance.setResourceTimingBufferSize(10000);"
+                    + "var urls = performance.getEntriesByType('resource').map(function (e) { return e.name; });"
+                    + "performance.clearResourceTimings();"
+                    + "return urls;");
+            for (String url : urls) {
+                if (!url.startsWith(siteUrl) && !url.startsWith("data:") && !url.startsWith("blob:")) {
+                    externalRequests.add(url);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warning("Could not read resource timings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Warn about traffic a recording missed, and fail a replay that left localhost or asked for unrecorded responses
+     */
+    private void checkReplayIsolation() {
+        if (sessionRecorder != null && !externalRequests.isEmpty()) {
+            LOGGER.warning("Requests to other origins were not recorded and will fail during replay: " + externalRequests);
+        }
+        if (replayServer == null) {
+            return;
+        }
+        if (!externalRequests.isEmpty()) {
+            Assert.fail("Replay is not offline; the page requested other origins: " + externalRequests);
+        }
+        if (replayServer.getUnmatchedRequests() > 0) {
+            Assert.fail("Replay received " + replayServer.getUnmatchedRequests() + " requests with no recorded response");
+        }
+    }
+
+    /**
+     * Compare this run with the stored baseline, or store it if there is none yet.
+     * An aborted or partly failed sweep is never compared or saved.
+     * @param sweepSucceeded whether the sweep ran to the end without throwing
+     */
+    private void checkPerformanceBaseline(boolean sweepSucceeded) {
+        if (BASELINE_FILE == null) {
+            return;
+        }
+        if (!sweepSucceeded || sweepMetrics.getFailed() > 0 || sweepMetrics.getRemaining() > 0) {
+            Assert.fail("Sweep did not complete (" + sweepMetrics.getFailed() + " failed, " + sweepMetrics.getRemaining()
+                    + " remaining); performance baseline not checked");
+        }
+        Path baselinePath = Paths.get(BASELINE_FILE);
+        PerformanceBaseline current = PerformanceBaseline.from(sweepMetrics);
+        try {
+            if (!Files.exists(baselinePath)) {
+                current.save(baselinePath);
+                return;
+            }
+            List<String> regressions = current.findRegressions(PerformanceBaseline.load(baselinePath), REGRESSION_THRESHOLD);
+            if (!regressions.isEmpty()) {
+                Assert.fail("Performance regression over " + Math.round(REGRESSION_THRESHOLD * 100) + "%: " + String.join("; ", regressions));
+            }
+            LOGGER.info("No performance regression against " + baselinePath);
+        } catch (IOException e) {
+            Assert.fail("Could not read or write performance baseline " + baselinePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create the sweep metrics and start the HTTP endpoint if a port is configured
+     * @param totalPoints number of grid points in the sweep
+     */
+    private void startSweepMetrics(long totalPoints) {
+        sweepMetrics = new SweepMetrics(totalPoints);
+        sweepMetrics.sessionStarted();
+
+        if (METRICS_PORT < 0) {
+            return;
+        }
+        try {
+            metricsServer = SweepMetricsServer.start(sweepMetrics, METRICS_PORT);
+        } catch (IOException e) {
+            LOGGER.warning("Could not start sweep metrics server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Edit, run and capture a single grid point, recording step latencies and the outcome
+     */
+    private void runGridPoint(int slPercent, int hour, int minute) {
+        try {
+            long stepStart = System.nanoTime();
+            editAndUpdateStrategy(slPercent, hour, minute);
+            stepStart = recordStepLatency("edit", stepStart);
+            runStrategy();
+            stepStart = recordStepLatency("run", stepStart);
+            TestResult result = captureResults(slPercent, hour, minute);
+            recordStepLatency("capture", stepStart);
+            snapshotDom(String.format("result-SL%d-%02d%02d", slPercent, hour, minute));
+
+            if (result == null || "N/A".equals(result.overallProfit)) {
+                sweepMetrics.recordFailed();
+            } else {
+                String gridPoint = String.format("SL=%d%% %02d:%02d", slPercent, hour, minute);
+                double profit = SweepMetrics.parseNumber(result.overallProfit);
+                sweepMetrics.recordCompleted(gridPoint, profit);
+                sweepAnalytics.accept(slPercent, hour, minute, profit, SweepMetrics.parseNumber(result.expectancy));
+            }
+        } catch (RuntimeException e) {
+            sweepMetrics.recordFailed();
+            throw e;
+        }
+    }
+
+    /**
+     * Record the latency of a sweep step
+     * @param startNanos start of the step from {@link System#nanoTime()}
+     * @return current time, to be used as the start of the next step
+     */
+    private long recordStepLatency(String step, long startNanos) {
+        long now = System.nanoTime();
+        sweepMetrics.recordStepLatency(step, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+        return now;
     }
 
     /**
      * Navigate to StockMock homepage
      */
     private void navigateToStockMock() {
-        LOGGER.info("Navigating to " + BASE_URL);
-        driver.navigate().to(BASE_URL);
+        LOGGER.info("Navigating to " + siteUrl);
+        driver.navigate().to(siteUrl);
         sleep(2000); // Allow page to load
         LOGGER.info("Successfully navigated to StockMock");
     }
@@ -195,6 +411,8 @@ public class StockMockLoginTestRefactored {
         LOGGER.info("Clicked login button");
 
         sleep(100); // Wait for login to complete
+        snapshotDom("login");
+        collectExternalRequests();
         LOGGER.info("Login successful");
     }
 
@@ -230,6 +448,7 @@ public class StockMockLoginTestRefactored {
         WebElement basketItem = wait.until(ExpectedConditions.elementToBeClickable(BASKET_ITEM_LOCATOR));
         basketItem.click();
         sleep(500);
+        snapshotDom("basket");
         LOGGER.info("Basket strategy selected");
     }
 
@@ -497,8 +716,9 @@ public class StockMockLoginTestRefactored {
 
     /**
      * Capture both overall profit and expectancy values from the results
+     * @return the captured result, or null if capturing failed
      */
-    private void captureResults(int slPercent, int hour, int minute) {
+    private TestResult captureResults(int slPercent, int hour, int minute) {
         LOGGER.info("Capturing overall profit and expectancy values...");
         sleep(1000); // Wait for results to render
 
@@ -508,12 +728,15 @@ public class StockMockLoginTestRefactored {
             LOGGER.info("Capturing overall profit and expectancy values...");
 
             // Store the result
-            testResults.add(new TestResult(slPercent, slPercent, hour, minute, overallProfit, expectancy));
+            TestResult result = new TestResult(slPercent, slPercent, hour, minute, overallProfit, expectancy);
+            testResults.add(result);
 
             logCapturedResults(slPercent, hour, minute, overallProfit, expectancy);
+            return result;
         } catch (Exception e) {
             LOGGER.severe("Error capturing results: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
     }
 
@@ -701,8 +924,45 @@ public class StockMockLoginTestRefactored {
         }
     }
 
+    /**
+     * Export the sensitivity analysis as an HTML report and a PNG heatmap; skipped when no grid point produced a result
+     */
+    private void exportSensitivityReport() {
+        SweepAnalytics.Snapshot snapshot = sweepAnalytics.snapshot();
+        if (snapshot.getRowCount() == 0) {
+            LOGGER.warning("No grid point produced a result, sensitivity report not written");
+            return;
+        }
+        LOGGER.info("Exporting sensitivity report for " + snapshot.getRowCount() + " results...");
+
+        try {
+            SensitivityReport report = new SensitivityReport(snapshot);
+            report.writeHtml(Paths.get("target/SensitivityReport.html"));
+            report.writeHeatmapPng(Paths.get("target/SensitivityHeatmap.png"));
+        } catch (IOException e) {
+            LOGGER.severe("Error exporting sensitivity report: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     @After
     public void tearDown() {
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+        if (recordingProxy != null) {
+            recordingProxy.close();
+        }
+        if (sessionRecorder != null) {
+            try {
+                sessionRecorder.close();
+            } catch (IOException e) {
+                LOGGER.warning("Could not close session recording: " + e.getMessage());
+            }
+        }
+        if (replayServer != null) {
+            replayServer.close();
+        }
         LOGGER.info("Test completed. Browser remains open for inspection.");
         // Uncomment below to close browser automatically
         // if (driver != null) {
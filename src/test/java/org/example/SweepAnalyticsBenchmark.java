@@ -0,0 +1,115 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Aggregation throughput of {@link SweepAnalytics} at 10M rows.
+ *
+ * Not part of the default test run; run it explicitly with
+ * {@code mvn test -Dtest=SweepAnalyticsBenchmark}.
+ */
+public class SweepAnalyticsBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(SweepAnalyticsBenchmark.class.getName());
+
+    private static final int ROWS = 10_000_000;
+    private static final int WARMUP_ROWS = 1_000_000;
+
+    // Same grid as the sweep: SL 5-100 x entry 9:16-12:00
+    private static final int SL_START = 5;
+    private static final int SL_END = 100;
+    private static final int ENTRY_START = 9 * 60 + 16;
+    private static final int ENTRY_END = 12 * 60;
+
+    @Test
+    public void benchmarkAggregationThroughput() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        run(1, WARMUP_ROWS);
+        report("single thread", 1, run(1, ROWS));
+        run(threads, WARMUP_ROWS);
+        report(threads + " threads", threads, run(threads, ROWS));
+    }
+
+    /**
+     * Feed the given number of rows, split across writer threads, and take a snapshot.
+     * The rows are generated up front so only {@code accept()} and the snapshot are timed.
+     * @return elapsed nanoseconds including the final snapshot
+     */
+    private long run(int threads, int rows) throws Exception {
+        SweepAnalytics analytics = new SweepAnalytics(SL_START, SL_END, ENTRY_START, ENTRY_END);
+        List<Rows> inputs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            inputs.add(new Rows(rows / threads + (t < rows % threads ? 1 : 0), t));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (Rows input : inputs) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < input.size; i++) {
+                        analytics.accept(input.sl[i], input.hour[i], input.minute[i], input.profit[i], input.expectancy[i]);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            assertEquals(rows, analytics.snapshot().getRowCount());
+        } finally {
+            executor.shutdown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Random sweep results for one writer thread
+     */
+    private static class Rows {
+        final int size;
+        final int[] sl;
+        final byte[] hour;
+        final byte[] minute;
+        final double[] profit;
+        final double[] expectancy;
+
+        Rows(int size, long seed) {
+            this.size = size;
+            sl = new int[size];
+            hour = new byte[size];
+            minute = new byte[size];
+            profit = new double[size];
+            expectancy = new double[size];
+
+            int slCount = SL_END - SL_START + 1;
+            int entryCount = ENTRY_END - ENTRY_START + 1;
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < size; i++) {
+                int entry = ENTRY_START + random.nextInt(entryCount);
+                sl[i] = SL_START + random.nextInt(slCount);
+                hour[i] = (byte) (entry / 60);
+                minute[i] = (byte) (entry % 60);
+                profit[i] = random.nextDouble(-5000, 5000);
+                expectancy[i] = random.nextDouble(-50, 50);
+            }
+        }
+    }
+
+    private void report(String label, int threads, long nanos) {
+        double seconds = nanos / 1e9;
+        LOGGER.info(String.format("%s: %,d rows in %.3fs (%,.0f rows/s, %d writer threads)",
+                label, ROWS, seconds, ROWS / seconds, threads));
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the incremental sensitivity analysis and its report.
+ */
+public class SweepAnalyticsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testMarginalsAndHeatmapFromParallelWriters() throws InterruptedException {
+        // 3 SL values x 3 entry times (9:16 - 9:18), profit = SL * 10 + minute offset
+        SweepAnalytics analytics = new SweepAnalytics(5, 7, 9 * 60 + 16, 9 * 60 + 18);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int sl = 5; sl <= 7; sl++) {
+                    for (int minute = 16; minute <= 18; minute++) {
+                        analytics.accept(sl, 9, minute, sl * 10 + (minute - 16), 1);
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        SweepAnalytics.Snapshot snapshot = analytics.snapshot();
+        assertEquals(36, snapshot.getRowCount());
+        assertEquals(61, snapshot.meanProfit(1, 1), 0);
+
+        SweepAnalytics.Marginal sl5 = snapshot.slMarginals().get(0);
+        assertEquals("5%", sl5.getLabel());
+        assertEquals(12, sl5.getCount());
+        assertEquals(51, sl5.getMeanProfit(), 1e-9);
+        assertEquals(50, sl5.getMinProfit(), 0);
+        assertEquals(52, sl5.getMaxProfit(), 0);
+
+        SweepAnalytics.Marginal entry918 = snapshot.entryTimeMarginals().get(2);
+        assertEquals("09:18", entry918.getLabel());
+        assertEquals(62, entry918.getMeanProfit(), 1e-9);
+    }
+
+    @Test
+    public void testRobustnessPrefersPlateausOverSpikes() {
+        SweepAnalytics analytics = new SweepAnalytics(5, 9, 9 * 60 + 16, 9 * 60 + 20);
+        for (int sl = 5; sl <= 9; sl++) {
+            for (int minute = 16; minute <= 20; minute++) {
+                analytics.accept(sl, 9, minute, 100, 1);
+            }
+        }
+        // A single spike in the middle of the plateau
+        analytics.accept(7, 9, 18, 1700, 1);
+
+        SweepAnalytics.Snapshot snapshot = analytics.snapshot();
+        assertEquals(900, snapshot.meanProfit(2, 2), 0);
+        assertTrue(snapshot.robustness(0, 0) > snapshot.robustness(2, 2));
+        assertEquals("SL=5% 09:16", snapshot.gridPointsByRobustness().get(0).getLabel());
+    }
+
+    @Test
+    public void testParetoFrontKeepsNonDominatedPoints() {
+        SweepAnalytics analytics = new SweepAnalytics(5, 8, 9 * 60 + 16, 9 * 60 + 16);
+        analytics.accept(5, 9, 16, 300, 10);
+        analytics.accept(6, 9, 16, 200, 30);
+        analytics.accept(7, 9, 16, 100, 20);
+        analytics.accept(8, 9, 16, 400, Double.NaN);
+
+        List<SweepAnalytics.GridPoint> front = analytics.snapshot().paretoFront();
+        assertEquals(2, front.size());
+        assertEquals(5, front.get(0).getSlPercent());
+        assertEquals(6, front.get(1).getSlPercent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsGridPointOutsideRange() {
+        new SweepAnalytics(5, 100, 9 * 60 + 16, 12 * 60).accept(101, 9, 16, 1, 1);
+    }
+
+    @Test
+    public void testReportIsWritten() throws IOException {
+        SweepAnalytics analytics = new SweepAnalytics(5, 6, 9 * 60 + 16, 9 * 60 + 17);
+        analytics.accept(5, 9, 16, -50, -1);
+        analytics.accept(6, 9, 17, 75, 2);
+
+        SensitivityReport report = new SensitivityReport(analytics.snapshot());
+        Path html = temporaryFolder.getRoot().toPath().resolve("report.html");
+        Path png = temporaryFolder.getRoot().toPath().resolve("heatmap.png");
+        report.writeHtml(html);
+        report.writeHeatmapPng(png);
+
+        String content = Files.readString(html);
+        assertTrue(content.contains("title=\"SL=6% 09:17: 75.00\""));
+        assertTrue(content.contains("<th colspan=\"1\" style=\"text-align:left\">09:17</th>"));
+        assertTrue(content.contains("Pareto front"));
+        // Axes and legend surround the 2 x 2 grid of 6px cells
+        BufferedImage image = ImageIO.read(png.toFile());
+        assertTrue(image.getWidth() > 2 * 6 + 100);
+        assertTrue(image.getHeight() > 2 * 6 + 50);
+    }
+}
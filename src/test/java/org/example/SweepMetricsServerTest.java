@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the sweep metrics and the embedded HTTP endpoint that exposes them.
+ */
+public class SweepMetricsServerTest {
+
+    private SweepMetrics metrics;
+    private SweepMetricsServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        metrics = new SweepMetrics(100, 3);
+        server = SweepMetricsServer.start(metrics, 0);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testCountersAreConsistentUnderConcurrentUpdates() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 20;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    metrics.recordCompleted("point-" + (offset + i), offset + i);
+                    metrics.recordStepLatency("run", 40);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        metrics.recordFailed();
+
+        assertEquals(80, metrics.getCompleted());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(19, metrics.getRemaining());
+        assertEquals(80, metrics.getStepLatencies().get("run").getCount());
+        assertEquals(50, metrics.getStepLatencies().get("run").percentile(0.99));
+
+        List<SweepMetrics.RankedResult> best = metrics.getBest();
+        assertEquals(3, best.size());
+        assertEquals(79, best.get(0).getOverallProfit(), 0);
+        assertEquals(78, best.get(1).getOverallProfit(), 0);
+        assertEquals(77, best.get(2).getOverallProfit(), 0);
+    }
+
+    @Test
+    public void testParseNumber() {
+        assertEquals(-1234.5, SweepMetrics.parseNumber("₹ -1,234.50"), 0);
+        assertEquals(1234, SweepMetrics.parseNumber("Rs. 1,234"), 0);
+        assertEquals(-1234, SweepMetrics.parseNumber("-₹1,234.00"), 0);
+        assertEquals(-1234, SweepMetrics.parseNumber("- 1,234"), 0);
+        assertEquals(-1234, SweepMetrics.parseNumber("\u2212₹1,234"), 0);
+        assertEquals(-1234, SweepMetrics.parseNumber("-Rs. 1,234"), 0);
+        assertEquals(56.78, SweepMetrics.parseNumber("Expectancy - 56.78 / trade"), 0);
+        assertTrue(Double.isNaN(SweepMetrics.parseNumber("N/A")));
+    }
+
+    @Test
+    public void testPercentileInUnboundedBucketReportsObservedMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(95000);
+        assertEquals(95000, histogram.percentile(0.99));
+        assertEquals(10, histogram.percentile(0.5));
+    }
+
+    @Test
+    public void testEndpointsServePrometheusAndJson() throws IOException {
+        metrics.sessionStarted();
+        metrics.recordCompleted("SL=25% 09:30", 1500);
+        metrics.recordStepLatency("edit", 3);
+
+        String prometheus = get("/metrics");
+        assertTrue(prometheus.contains("# TYPE sweep_grid_points gauge\nsweep_grid_points 100\n"));
+        assertTrue(prometheus.contains("sweep_points_completed_total 1\n"));
+        assertTrue(prometheus.contains("sweep_active_sessions 1\n"));
+        assertTrue(prometheus.contains("sweep_step_latency_milliseconds{step=\"edit\",quantile=\"0.5\"} 5\n"));
+        assertTrue(prometheus.contains("sweep_best_overall_profit{rank=\"1\",grid_point=\"SL=25% 09:30\"} 1500\n"));
+
+        String json = get("/metrics.json");
+        assertTrue(json.startsWith("{\"totalPoints\":100,\"completed\":1,\"failed\":0,\"remaining\":99,"));
+        assertTrue(json.contains("\"best\":[{\"gridPoint\":\"SL=25% 09:30\",\"overallProfit\":1500}]"));
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            assertEquals(200, connection.getResponseCode());
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}